@@ -0,0 +1,29 @@
+package com.mycompany.reflexion;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method to be measured by {@link BenchmarkRunner}.
+ * The method may take a single {@link Blackhole} parameter, and its return value is consumed by one.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Benchmark {
+    /**
+     * Number of iterations run before measuring, to let the JIT compile the method.
+     */
+    int warmupIterations() default 500;
+
+    /**
+     * Number of measured iterations. Each one is timed as a single sample of the percentiles.
+     */
+    int iterations() default 1_000;
+
+    /**
+     * Number of invocations in each iteration.
+     */
+    int batchSize() default 1_000;
+}
@@ -0,0 +1,157 @@
+package com.mycompany.reflexion;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the {@link Benchmark} methods of one or more classes or packages and prints their throughput
+ * and the percentiles of the time per operation, sampled once per measured iteration.
+ * Each iteration runs as a single {@link MethodHandles#countedLoop} built around the benchmark handle,
+ * so after warmup the JIT inlines the benchmark method and the blackhole into the loop and
+ * neither reflection nor per-call handle dispatch shows up in the measurements.
+ *
+ * Usage: BenchmarkRunner &lt;class or package&gt;...
+ */
+public class BenchmarkRunner {
+    private static final MethodType BENCHMARK_TYPE = MethodType.methodType(Object.class, Blackhole.class);
+    private static final MethodHandle CONSUME;
+
+    static {
+        try {
+            CONSUME = MethodHandles.lookup().findVirtual(Blackhole.class, "consume",
+                    MethodType.methodType(void.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public static void main(String[] args) throws Throwable {
+        List<Class<?>> classes = new ArrayList<>();
+        for (String arg : args) {
+            classes.addAll(JUnitECI.findClasses(arg));
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-50s %15s %12s %12s %12s %12s",
+                "Benchmark", "ops/s", "mean ns/op", "p50 ns/op", "p90 ns/op", "p99 ns/op"));
+        for (Class<?> c : classes) {
+            for (Method m : c.getDeclaredMethods()) {
+                if (m.isAnnotationPresent(Benchmark.class)) {
+                    runBenchmark(c, m);
+                }
+            }
+        }
+    }
+
+    /**
+     * Warms up and measures a single benchmark method, then prints its statistics.
+     *
+     * @param c the benchmark class
+     * @param m the benchmark method
+     * @throws Throwable if the benchmark cannot be created or the method throws
+     */
+    private static void runBenchmark(Class<?> c, Method m) throws Throwable {
+        Benchmark benchmark = m.getAnnotation(Benchmark.class);
+        if (benchmark.warmupIterations() < 0 || benchmark.iterations() <= 0 || benchmark.batchSize() <= 0) {
+            throw new IllegalArgumentException("Benchmark " + m.getName()
+                    + " needs a non-negative warmupIterations and positive iterations and batchSize");
+        }
+        MethodHandle loop = toLoop(toHandle(c, m));
+        Blackhole blackhole = new Blackhole();
+        int batchSize = benchmark.batchSize();
+
+        for (int i = 0; i < benchmark.warmupIterations(); i++) {
+            runIteration(loop, blackhole, batchSize);
+        }
+
+        double[] nanosPerOp = new double[benchmark.iterations()];
+        long totalNanos = 0;
+        for (int i = 0; i < nanosPerOp.length; i++) {
+            long elapsed = runIteration(loop, blackhole, batchSize);
+            totalNanos += elapsed;
+            nanosPerOp[i] = (double) elapsed / batchSize;
+        }
+        Arrays.sort(nanosPerOp);
+
+        double meanNanosPerOp = (double) totalNanos / ((long) nanosPerOp.length * batchSize);
+        System.out.println(String.format(Locale.ROOT, "%-50s %15.1f %12.2f %12.2f %12.2f %12.2f",
+                c.getSimpleName() + "." + m.getName(), 1_000_000_000.0 / meanNanosPerOp, meanNanosPerOp,
+                percentile(nanosPerOp, 50), percentile(nanosPerOp, 90), percentile(nanosPerOp, 99)));
+    }
+
+    /**
+     * Runs one iteration of the benchmark loop.
+     *
+     * @param loop the benchmark loop, of type (int, Blackhole)void
+     * @param blackhole the blackhole consuming the results
+     * @param batchSize the number of invocations
+     * @return the elapsed time in nanoseconds
+     * @throws Throwable if the benchmark method throws
+     */
+    private static long runIteration(MethodHandle loop, Blackhole blackhole, int batchSize) throws Throwable {
+        long start = System.nanoTime();
+        loop.invokeExact(batchSize, blackhole);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Builds a handle of type (int, Blackhole)void that invokes the benchmark the given number of times,
+     * feeding every result to the blackhole.
+     *
+     * @param handle the benchmark handle, of type (Blackhole)Object
+     * @return the loop handle
+     */
+    private static MethodHandle toLoop(MethodHandle handle) {
+        // (Blackhole, Blackhole)void: blackhole.consume(benchmark(blackhole))
+        MethodHandle consumeResult = MethodHandles.collectArguments(CONSUME, 1, handle);
+        MethodHandle body = MethodHandles.permuteArguments(consumeResult,
+                MethodType.methodType(void.class, Blackhole.class), 0, 0);
+        // The loop body also receives the loop counter and the loop arguments.
+        body = MethodHandles.dropArguments(body, 0, int.class, int.class);
+        MethodHandle count = MethodHandles.dropArguments(MethodHandles.identity(int.class), 1, Blackhole.class);
+        return MethodHandles.countedLoop(count, null, body);
+    }
+
+    /**
+     * Adapts a benchmark method to a handle of type (Blackhole)Object, bound to a new instance
+     * of the class when the method is not static.
+     *
+     * @param c the benchmark class
+     * @param m the benchmark method
+     * @return the adapted handle
+     * @throws ReflectiveOperationException if the method cannot be accessed or the class instantiated
+     */
+    private static MethodHandle toHandle(Class<?> c, Method m) throws ReflectiveOperationException {
+        Class<?>[] parameterTypes = m.getParameterTypes();
+        if (parameterTypes.length > 1 || (parameterTypes.length == 1 && parameterTypes[0] != Blackhole.class)) {
+            throw new IllegalArgumentException("Benchmark " + m.getName() + " may only take a Blackhole parameter");
+        }
+        m.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflect(m);
+        if (!Modifier.isStatic(m.getModifiers())) {
+            handle = handle.bindTo(c.getDeclaredConstructor().newInstance());
+        }
+        if (parameterTypes.length == 0) {
+            handle = MethodHandles.dropArguments(handle, 0, Blackhole.class);
+        }
+        return handle.asType(BENCHMARK_TYPE);
+    }
+
+    /**
+     * Returns the nearest-rank percentile of sorted values.
+     *
+     * @param sorted the values in ascending order
+     * @param percentile the percentile, between 0 and 100
+     * @return the value at the percentile
+     */
+    private static double percentile(double[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+}
@@ -0,0 +1,29 @@
+package com.mycompany.reflexion;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Consumes benchmark results so the JIT cannot remove the code that produced them.
+ */
+public class Blackhole {
+    private volatile int mask = 1;
+    private int seed = (int) System.nanoTime();
+    private Object sink;
+
+    /**
+     * Consumes a value. A pseudo-random test against a volatile mask publishes the value
+     * on a rare, unpredictable path, so the JIT can neither drop the computation nor scalar
+     * replace the value, while the common path stays as cheap as a field update.
+     *
+     * @param value the value to consume
+     */
+    public void consume(Object value) {
+        int currentMask = mask;
+        int next = seed * 1664525 + 1013904223;
+        seed = next;
+        if ((next & currentMask) == 0) {
+            sink = new WeakReference<>(value);
+            mask = (currentMask << 1) + 1;
+        }
+    }
+}
@@ -4,34 +4,330 @@
  */
 package com.mycompany.reflexion;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
+ * Runs the {@link Test} methods of one or more classes or packages.
+ * Tests run in parallel on a fork-join pool, except for classes annotated with {@link RunSerially}.
+ * Every test is timed and the results are written as JUnit XML.
+ * The process exits with status 1 when any test fails.
+ *
+ * Usage: JUnitECI [--reports &lt;dir&gt;] &lt;class or package&gt;...
  *
  * @author NICOLAS.ACHURI-M
  */
 public class JUnitECI {
-    public static void main (String[] args) throws ClassNotFoundException{
-        Class c = Class.forName(args[0]);
-        
-        Method[] methods = c.getDeclaredMethods();
-        
-        int passed = 0;
-        int failed = 0;
-        
-         for (Method m: methods){
-            if(m.isAnnotationPresent(Test.class)){
-                try{
-                    m.invoke(null);
-                    System.out.println("Test " + m.getName() +" PASSED");
-                    passed++;
-                }catch (Exception e){
-                    System.out.println("Test " + m.getName() + " FAILED");
-                    failed++;
+    private static final String DEFAULT_REPORTS_DIR = "target/junit-reports";
+
+    public static void main (String[] args) throws Exception{
+        Path reportsDir = Paths.get(DEFAULT_REPORTS_DIR);
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--reports".equals(args[i]) && i + 1 < args.length) {
+                reportsDir = Paths.get(args[++i]);
+            } else {
+                classes.addAll(findClasses(args[i]));
+            }
+        }
+
+        Map<Class<?>, Future<List<TestResult>>> futures = new LinkedHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            for (Class<?> c : classes) {
+                List<Method> tests = findTests(c);
+                if (!tests.isEmpty()) {
+                    futures.put(c, pool.submit(() -> runClass(c, tests)));
+                }
+            }
+
+            int passed = 0;
+            int failed = 0;
+            JUnitXmlReport report = new JUnitXmlReport(reportsDir);
+            for (Map.Entry<Class<?>, Future<List<TestResult>>> entry : futures.entrySet()) {
+                List<TestResult> results = entry.getValue().get();
+                for (TestResult result : results) {
+                    if (result.passed()) {
+                        passed++;
+                    } else {
+                        failed++;
+                    }
+                }
+                report.write(entry.getKey().getName(), results);
+            }
+            System.out.println("PASSED: "+passed);
+            System.out.println("FAILED: "+failed);
+            if (failed > 0) {
+                System.exit(1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Resolves a command line argument into the classes it names.
+     * The argument is first tried as a class name and otherwise scanned as a package.
+     * Classes are loaded without being initialized, so their static initializers only run when they are tested.
+     *
+     * @param name a fully qualified class or package name
+     * @return the classes found
+     * @throws IOException if the package cannot be scanned
+     * @throws ClassNotFoundException if the name is neither a class nor a package with classes
+     */
+    static List<Class<?>> findClasses(String name) throws IOException, ClassNotFoundException {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        try {
+            return Collections.singletonList(Class.forName(name, false, loader));
+        } catch (ClassNotFoundException e) {
+            List<Class<?>> classes = new ArrayList<>();
+            for (String className : scanPackage(name)) {
+                classes.add(Class.forName(className, false, loader));
+            }
+            if (classes.isEmpty()) {
+                throw e;
+            }
+            return classes;
+        }
+    }
+
+    /**
+     * Lists the names of the top level classes of a package, found in directories or jars of the classpath.
+     *
+     * @param packageName the package to scan
+     * @return the fully qualified class names
+     * @throws IOException if a classpath entry cannot be read
+     */
+    private static List<String> scanPackage(String packageName) throws IOException {
+        String path = packageName.replace('.', '/');
+        List<String> classNames = new ArrayList<>();
+        Enumeration<URL> resources = Thread.currentThread().getContextClassLoader().getResources(path);
+        while (resources.hasMoreElements()) {
+            URL resource = resources.nextElement();
+            if ("file".equals(resource.getProtocol())) {
+                File[] files;
+                try {
+                    files = new File(resource.toURI()).listFiles();
+                } catch (URISyntaxException e) {
+                    throw new IOException(e);
+                }
+                if (files != null) {
+                    for (File file : files) {
+                        String fileName = file.getName();
+                        if (fileName.endsWith(".class") && !fileName.contains("$")) {
+                            classNames.add(packageName + "." + fileName.substring(0, fileName.length() - 6));
+                        }
+                    }
+                }
+            } else if ("jar".equals(resource.getProtocol())) {
+                JarURLConnection connection = (JarURLConnection) resource.openConnection();
+                connection.setUseCaches(false);
+                try (JarFile jar = connection.getJarFile()) {
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        String entryName = entries.nextElement().getName();
+                        if (entryName.startsWith(path + "/") && entryName.endsWith(".class")
+                                && entryName.indexOf('/', path.length() + 1) < 0 && !entryName.contains("$")) {
+                            classNames.add(entryName.substring(0, entryName.length() - 6).replace('/', '.'));
+                        }
+                    }
+                }
+            }
+        }
+        return classNames;
+    }
+
+    /**
+     * Returns the methods of a class annotated with {@link Test}.
+     *
+     * @param c the test class
+     * @return the test methods
+     */
+    private static List<Method> findTests(Class<?> c) {
+        List<Method> tests = new ArrayList<>();
+        for (Method m : c.getDeclaredMethods()) {
+            if (m.isAnnotationPresent(Test.class)) {
+                m.setAccessible(true);
+                tests.add(m);
+            }
+        }
+        return tests;
+    }
+
+    /**
+     * Runs the tests of a class, one after the other if the class is annotated with {@link RunSerially}
+     * or as parallel fork-join subtasks otherwise.
+     * If the class fails to initialize, every test of the class is reported as failed with that error.
+     *
+     * @param c the test class
+     * @param tests the test methods of the class
+     * @return the results in the order of the test methods
+     */
+    private static List<TestResult> runClass(Class<?> c, List<Method> tests) {
+        List<TestResult> results = new ArrayList<>();
+        try {
+            Class.forName(c.getName(), true, c.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            Throwable cause = e instanceof ExceptionInInitializerError && e.getCause() != null ? e.getCause() : e;
+            for (Method m : tests) {
+                TestResult result = new TestResult(c.getName(), m.getName());
+                result.failure = cause;
+                System.out.println("Test " + m.getName() + " FAILED: " + cause);
+                results.add(result);
+            }
+            return results;
+        }
+        if (c.isAnnotationPresent(RunSerially.class)) {
+            for (Method m : tests) {
+                results.add(runTest(c, m));
+            }
+        } else {
+            List<ForkJoinTask<TestResult>> tasks = new ArrayList<>();
+            for (Method m : tests) {
+                tasks.add(ForkJoinTask.adapt(() -> runTest(c, m)));
+            }
+            for (ForkJoinTask<TestResult> task : ForkJoinTask.invokeAll(tasks)) {
+                results.add(task.join());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs a single test method, on a fresh instance of its class when the method is not static.
+     * Tests with a timeout run on their own thread, which is abandoned if the timeout expires.
+     * The abandoned thread keeps its own result, so it cannot change the reported one.
+     *
+     * @param c the test class
+     * @param m the test method
+     * @return the result of the test
+     */
+    private static TestResult runTest(Class<?> c, Method m) {
+        TestResult result;
+        long timeout = m.getAnnotation(Test.class).timeout();
+        if (timeout <= 0) {
+            result = invokeMeasured(c, m);
+        } else {
+            FutureTask<TestResult> task = new FutureTask<>(() -> invokeMeasured(c, m));
+            Thread thread = new Thread(task, "test-" + m.getName());
+            thread.setDaemon(true);
+            long start = System.nanoTime();
+            thread.start();
+            try {
+                ForkJoinPool.managedBlock(new TimedWait(task, start + TimeUnit.MILLISECONDS.toNanos(timeout)));
+                if (task.isDone()) {
+                    result = task.get();
+                } else {
+                    thread.interrupt();
+                    result = new TestResult(c.getName(), m.getName());
+                    result.wallNanos = System.nanoTime() - start;
+                    result.failure = new TimeoutException("Test " + m.getName() + " timed out after " + timeout + " ms");
                 }
+            } catch (InterruptedException | ExecutionException e) {
+                thread.interrupt();
+                result = new TestResult(c.getName(), m.getName());
+                result.wallNanos = System.nanoTime() - start;
+                result.failure = e instanceof ExecutionException ? e.getCause() : e;
             }
         }
-         System.out.println("PASSED: "+passed);
-         System.out.println("FAILED: "+failed);
+
+        if (result.passed()) {
+            System.out.println("Test " + m.getName() +" PASSED");
+        } else {
+            System.out.println("Test " + m.getName() + " FAILED: " + result.failure);
+        }
+        return result;
+    }
+
+    /**
+     * Invokes a test method on the current thread, recording its wall-clock time, CPU time,
+     * allocated bytes and failure cause.
+     *
+     * @param c the test class
+     * @param m the test method
+     * @return the result of the test
+     */
+    private static TestResult invokeMeasured(Class<?> c, Method m) {
+        TestResult result = new TestResult(c.getName(), m.getName());
+        long cpuStart = ThreadMetrics.currentThreadCpuTime();
+        long allocatedStart = ThreadMetrics.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        try {
+            Object instance = Modifier.isStatic(m.getModifiers()) ? null : c.getDeclaredConstructor().newInstance();
+            m.invoke(instance);
+        } catch (InvocationTargetException e) {
+            result.failure = e.getCause();
+        } catch (Exception e) {
+            result.failure = e;
+        } finally {
+            result.wallNanos = System.nanoTime() - start;
+            if (cpuStart >= 0) {
+                result.cpuNanos = ThreadMetrics.currentThreadCpuTime() - cpuStart;
+            }
+            if (allocatedStart >= 0) {
+                result.allocatedBytes = ThreadMetrics.currentThreadAllocatedBytes() - allocatedStart;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Waits for a timed test without starving the fork-join pool: while blocked, the pool
+     * may start a compensating worker so the other tests keep running in parallel.
+     */
+    private static class TimedWait implements ForkJoinPool.ManagedBlocker {
+        private final FutureTask<TestResult> task;
+        private final long deadline;
+
+        /**
+         * Constructs a new TimedWait.
+         *
+         * @param task the task running the test
+         * @param deadline the System.nanoTime value at which the test times out
+         */
+        TimedWait(FutureTask<TestResult> task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            try {
+                task.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                // Inspected by the caller once the wait is over.
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return task.isDone() || System.nanoTime() - deadline >= 0;
+        }
     }
 }
@@ -0,0 +1,94 @@
+package com.mycompany.reflexion;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes test results as JUnit XML, one TEST-&lt;class&gt;.xml file per test class.
+ * Besides the usual wall-clock time, every test case carries its CPU time and allocated bytes as properties.
+ */
+public class JUnitXmlReport {
+    private final Path directory;
+
+    /**
+     * Constructs a new JUnitXmlReport.
+     *
+     * @param directory the directory where the report files are written
+     */
+    public JUnitXmlReport(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Writes the report of one test class.
+     *
+     * @param className the fully qualified name of the test class
+     * @param results the results of the tests of the class
+     * @throws IOException if the report cannot be written
+     */
+    public void write(String className, List<TestResult> results) throws IOException {
+        Files.createDirectories(directory);
+        long failures = results.stream().filter(r -> !r.passed()).count();
+        long totalNanos = results.stream().mapToLong(r -> r.wallNanos).sum();
+
+        try (Writer out = Files.newBufferedWriter(directory.resolve("TEST-" + className + ".xml"), StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.write("<testsuite name=\"" + escape(className) + "\" tests=\"" + results.size()
+                    + "\" failures=\"" + failures + "\" errors=\"0\" skipped=\"0\" time=\"" + seconds(totalNanos) + "\">\n");
+            for (TestResult result : results) {
+                out.write("  <testcase name=\"" + escape(result.methodName) + "\" classname=\"" + escape(className)
+                        + "\" time=\"" + seconds(result.wallNanos) + "\">\n");
+                out.write("    <properties>\n");
+                out.write("      <property name=\"cpu-time\" value=\"" + seconds(result.cpuNanos) + "\"/>\n");
+                out.write("      <property name=\"allocated-bytes\" value=\"" + result.allocatedBytes + "\"/>\n");
+                out.write("    </properties>\n");
+                if (!result.passed()) {
+                    out.write("    <failure message=\"" + escape(String.valueOf(result.failure.getMessage()))
+                            + "\" type=\"" + escape(result.failure.getClass().getName()) + "\">"
+                            + escape(stackTrace(result.failure)) + "</failure>\n");
+                }
+                out.write("  </testcase>\n");
+            }
+            out.write("</testsuite>\n");
+        }
+    }
+
+    /**
+     * Formats a duration in nanoseconds as seconds, or -1 if it was not measured.
+     *
+     * @param nanos the duration in nanoseconds
+     * @return the duration in seconds
+     */
+    private static String seconds(long nanos) {
+        return nanos < 0 ? "-1" : String.format(Locale.ROOT, "%.6f", nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Returns the stack trace of a throwable as a string.
+     *
+     * @param t the throwable
+     * @return the printed stack trace
+     */
+    private static String stackTrace(Throwable t) {
+        StringWriter sw = new StringWriter();
+        t.printStackTrace(new PrintWriter(sw));
+        return sw.toString();
+    }
+
+    /**
+     * Escapes the XML special characters of a string.
+     *
+     * @param s the string to escape
+     * @return the escaped string
+     */
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -3,20 +3,34 @@
  * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
  */
 package com.mycompany.reflexion;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 /**
+ * Invokes the main method of another class, forwarding the remaining arguments.
+ * With --batch [file] it runs one invocation per line of the file, or of the standard input,
+ * in this same JVM (see {@link MethodInvoker#runBatch}).
  *
  * @author NICOLAS.ACHURI-M
  */
 public class MainExecutor {
-     public static void main(String[] args) throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException, InvocationTargetException {
-         Class c = Class.forName(args[0]);
-         Class[] mainParamTypes = {String[].class};
-         Method main = c.getDeclaredMethod("main", mainParamTypes);
+     public static void main(String[] args) throws Exception {
+         if ("--batch".equals(args[0])) {
+             try (BufferedReader reader = args.length > 1
+                     ? Files.newBufferedReader(Paths.get(args[1]))
+                     : new BufferedReader(new InputStreamReader(System.in))) {
+                 int failed = MethodInvoker.runBatch(reader);
+                 if (failed > 0) {
+                     System.exit(1);
+                 }
+             }
+             return;
+         }
          
-         String[] parms = {args[1],args[2]};
-         main.invoke(null,(Object)parms);
+         Class<?> c = Class.forName(args[0]);
+         MethodInvoker.invokeMain(c, Arrays.copyOfRange(args, 1, args.length));
          
      }
 }
@@ -0,0 +1,259 @@
+package com.mycompany.reflexion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Invokes methods through {@link MethodHandle}s that are resolved once and cached per class.
+ * Handles are adapted to a generic (Object, Object[])Object shape so callers can forward any number of arguments.
+ * The receiver and arguments are checked before the call, so as with {@link Method#invoke} only the exceptions
+ * thrown by the method itself are wrapped in an {@link InvocationTargetException}.
+ */
+public class MethodInvoker {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    private static final Map<Class<?>, Class<?>> PRIMITIVES = Map.of(
+            Boolean.class, boolean.class, Byte.class, byte.class, Short.class, short.class,
+            Character.class, char.class, Integer.class, int.class, Long.class, long.class,
+            Float.class, float.class, Double.class, double.class);
+    private static final List<Class<?>> NUMERIC_WIDENING = List.of(
+            byte.class, short.class, int.class, long.class, float.class, double.class);
+    private static final ClassValue<MethodCache> caches = new ClassValue<>() {
+        @Override
+        protected MethodCache computeValue(Class<?> type) {
+            return new MethodCache();
+        }
+    };
+
+    /**
+     * Invokes a declared method of a class.
+     *
+     * @param c the class declaring the method
+     * @param name the name of the method
+     * @param parameterTypes the parameter types of the method
+     * @param receiver the instance to invoke the method on, ignored for static methods
+     * @param args the arguments to forward
+     * @return the value returned by the method, or null for void methods
+     * @throws ReflectiveOperationException if the method cannot be found or accessed, or
+     *         an InvocationTargetException wrapping the exception thrown by the method
+     * @throws IllegalArgumentException if the receiver or the arguments do not match the method
+     * @throws NullPointerException if the method is an instance method and the receiver is null
+     */
+    public static Object invoke(Class<?> c, String name, Class<?>[] parameterTypes, Object receiver, Object... args)
+            throws ReflectiveOperationException {
+        MethodCache cache = caches.get(c);
+        String key = name + MethodType.methodType(void.class, parameterTypes).toMethodDescriptorString();
+        CachedMethod cached = cache.bySignature.get(key);
+        if (cached == null) {
+            cached = resolve(c.getDeclaredMethod(name, parameterTypes));
+            CachedMethod previous = cache.bySignature.putIfAbsent(key, cached);
+            if (previous != null) {
+                cached = previous;
+            }
+        }
+        return cached.invoke(receiver, args);
+    }
+
+    /**
+     * Invokes a method through its cached handle.
+     *
+     * @param method the method to invoke
+     * @param receiver the instance to invoke the method on, ignored for static methods
+     * @param args the arguments to forward
+     * @return the value returned by the method, or null for void methods
+     * @throws ReflectiveOperationException if the method cannot be accessed, or
+     *         an InvocationTargetException wrapping the exception thrown by the method
+     * @throws IllegalArgumentException if the receiver or the arguments do not match the method
+     * @throws NullPointerException if the method is an instance method and the receiver is null
+     */
+    public static Object invoke(Method method, Object receiver, Object... args) throws ReflectiveOperationException {
+        MethodCache cache = caches.get(method.getDeclaringClass());
+        CachedMethod cached = cache.byMethod.get(method);
+        if (cached == null) {
+            cached = resolve(method);
+            CachedMethod previous = cache.byMethod.putIfAbsent(method, cached);
+            if (previous != null) {
+                cached = previous;
+            }
+        }
+        return cached.invoke(receiver, args);
+    }
+
+    /**
+     * Invokes the main method of a class, forwarding all the given arguments.
+     *
+     * @param c the class declaring main
+     * @param args the arguments to pass to main
+     * @throws ReflectiveOperationException if main cannot be found or accessed, or
+     *         an InvocationTargetException wrapping the exception thrown by main
+     */
+    public static void invokeMain(Class<?> c, String... args) throws ReflectiveOperationException {
+        invoke(c, "main", new Class<?>[]{String[].class}, null, (Object) args);
+    }
+
+    /**
+     * Runs a batch of invocations in this JVM, one per line.
+     * Each line has the form {@code <class>[#<method>] [args...]}; without a method, main receives the arguments,
+     * otherwise the static method taking that many String parameters is called and its result printed.
+     * Blank lines and lines starting with {@code #} are skipped. A failing invocation does not stop the batch.
+     *
+     * @param reader the source of the batch
+     * @return the number of failed invocations
+     * @throws IOException if the batch cannot be read
+     */
+    public static int runBatch(BufferedReader reader) throws IOException {
+        int failed = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            String[] args = Arrays.copyOfRange(parts, 1, parts.length);
+            int separator = parts[0].indexOf('#');
+            try {
+                if (separator < 0) {
+                    invokeMain(Class.forName(parts[0]), args);
+                } else {
+                    Class<?> c = Class.forName(parts[0].substring(0, separator));
+                    Class<?>[] parameterTypes = new Class<?>[args.length];
+                    Arrays.fill(parameterTypes, String.class);
+                    Object result = invoke(c, parts[0].substring(separator + 1), parameterTypes, null, (Object[]) args);
+                    System.out.println(result);
+                }
+            } catch (InvocationTargetException e) {
+                System.out.println("FAILED " + line + ": " + e.getCause());
+                failed++;
+            } catch (ReflectiveOperationException | IllegalArgumentException | NullPointerException e) {
+                System.out.println("FAILED " + line + ": invalid invocation: " + e);
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Unreflects a method into a handle of type (Object, Object[])Object.
+     *
+     * @param method the method to adapt
+     * @return the adapted handle together with what is needed to check its arguments
+     * @throws IllegalAccessException if the method cannot be accessed
+     */
+    private static CachedMethod resolve(Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        if (isStatic) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        handle = handle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+        return new CachedMethod(handle, method.getDeclaringClass(), isStatic, method.getParameterTypes());
+    }
+
+    /**
+     * Tells whether a value of the given class can be passed to a parameter of the given type,
+     * allowing unboxing and widening primitive conversions as {@link Method#invoke} does.
+     *
+     * @param parameterType the declared type of the parameter
+     * @param arg the argument
+     * @return true if the argument can be passed
+     */
+    private static boolean accepts(Class<?> parameterType, Object arg) {
+        if (!parameterType.isPrimitive()) {
+            return arg == null || parameterType.isInstance(arg);
+        }
+        if (arg == null) {
+            return false;
+        }
+        Class<?> primitive = PRIMITIVES.get(arg.getClass());
+        if (primitive == null) {
+            return false;
+        }
+        if (primitive == parameterType) {
+            return true;
+        }
+        int to = NUMERIC_WIDENING.indexOf(parameterType);
+        if (primitive == char.class) {
+            return to >= NUMERIC_WIDENING.indexOf(int.class);
+        }
+        int from = NUMERIC_WIDENING.indexOf(primitive);
+        return from >= 0 && to > from;
+    }
+
+    /**
+     * The cached handles of one class, by method and by name and parameter types.
+     */
+    private static class MethodCache {
+        final Map<Method, CachedMethod> byMethod = new ConcurrentHashMap<>();
+        final Map<String, CachedMethod> bySignature = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * An adapted handle together with the declaration it was built from.
+     */
+    private static class CachedMethod {
+        final MethodHandle handle;
+        final Class<?> declaringClass;
+        final boolean isStatic;
+        final Class<?>[] parameterTypes;
+
+        /**
+         * Constructs a new CachedMethod.
+         *
+         * @param handle the handle of type (Object, Object[])Object
+         * @param declaringClass the class declaring the method
+         * @param isStatic whether the method is static
+         * @param parameterTypes the parameter types of the method
+         */
+        CachedMethod(MethodHandle handle, Class<?> declaringClass, boolean isStatic, Class<?>[] parameterTypes) {
+            this.handle = handle;
+            this.declaringClass = declaringClass;
+            this.isStatic = isStatic;
+            this.parameterTypes = parameterTypes;
+        }
+
+        /**
+         * Checks the receiver and arguments, then invokes the handle, wrapping only the exceptions
+         * thrown by the method itself.
+         *
+         * @param receiver the instance to invoke the method on
+         * @param args the arguments to forward
+         * @return the value returned by the method
+         * @throws InvocationTargetException if the method throws
+         */
+        Object invoke(Object receiver, Object[] args) throws InvocationTargetException {
+            if (!isStatic) {
+                if (receiver == null) {
+                    throw new NullPointerException("Cannot invoke an instance method of " + declaringClass.getName() + " on null");
+                }
+                if (!declaringClass.isInstance(receiver)) {
+                    throw new IllegalArgumentException("object is not an instance of declaring class");
+                }
+            }
+            int count = args == null ? 0 : args.length;
+            if (count != parameterTypes.length) {
+                throw new IllegalArgumentException("wrong number of arguments: " + count + " expected: " + parameterTypes.length);
+            }
+            for (int i = 0; i < count; i++) {
+                if (!accepts(parameterTypes[i], args[i])) {
+                    throw new IllegalArgumentException("argument type mismatch");
+                }
+            }
+            try {
+                return (Object) handle.invokeExact(receiver, args);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+}
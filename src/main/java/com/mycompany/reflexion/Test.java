@@ -13,5 +13,8 @@ import java.lang.annotation.RetentionPolicy;
  */
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Test {
-    
+    /**
+     * Maximum time in milliseconds the test may run before it is failed, 0 for no limit.
+     */
+    long timeout() default 0;
 }
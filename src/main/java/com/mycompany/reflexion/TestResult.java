@@ -0,0 +1,31 @@
+package com.mycompany.reflexion;
+
+/**
+ * The outcome and measurements of a single test method run by {@link JUnitECI}.
+ */
+public class TestResult {
+    final String className;
+    final String methodName;
+    long wallNanos;
+    long cpuNanos = -1;
+    long allocatedBytes = -1;
+    Throwable failure;
+
+    /**
+     * Constructs a new TestResult.
+     *
+     * @param className the fully qualified name of the test class
+     * @param methodName the name of the test method
+     */
+    TestResult(String className, String methodName) {
+        this.className = className;
+        this.methodName = methodName;
+    }
+
+    /**
+     * @return true if the test completed without throwing
+     */
+    public boolean passed() {
+        return failure == null;
+    }
+}
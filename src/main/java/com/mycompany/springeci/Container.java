@@ -0,0 +1,279 @@
+package com.mycompany.springeci;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A small inversion of control container.
+ * Components are registered by class, their constructor dependencies are resolved once
+ * into a graph of providers, and instances are then created according to their {@link Scope}.
+ * Instances that implement {@link AutoCloseable} are closed when their scope ends:
+ * request scoped ones by {@link RequestScope#close()}, singletons and thread scoped ones by {@link #close()}.
+ */
+public class Container implements AutoCloseable {
+    private final Set<Class<?>> registered = new LinkedHashSet<>();
+    private final Map<Class<?>, Provider> providers = new LinkedHashMap<>();
+    private boolean initialized;
+
+    /**
+     * Registers a component class. Its constructor dependencies must be registered too,
+     * or be annotated with {@link Component}, {@link RestController} or {@link Scope}.
+     *
+     * @param type the component class
+     */
+    public void register(Class<?> type) {
+        if (initialized) {
+            throw new IllegalStateException("Container already initialized");
+        }
+        registered.add(type);
+    }
+
+    /**
+     * Resolves the provider graph of every registered component and creates the singletons.
+     *
+     * @throws Exception if a component cannot be resolved or instantiated
+     */
+    public void initialize() throws Exception {
+        for (Class<?> type : registered) {
+            resolve(type, new ArrayList<>());
+        }
+        initialized = true;
+        for (Provider provider : providers.values()) {
+            if (provider.scope == ScopeType.SINGLETON) {
+                provider.get(null);
+            }
+        }
+    }
+
+    /**
+     * Returns the instance of the given component for the given request.
+     *
+     * @param type the component class
+     * @param requestScope the scope of the current request
+     * @return the component instance
+     * @throws Exception if the component cannot be instantiated
+     */
+    public Object getInstance(Class<?> type, RequestScope requestScope) throws Exception {
+        Provider provider = providers.get(type);
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown component: " + type.getName());
+        }
+        return provider.get(requestScope);
+    }
+
+    /**
+     * Closes the singleton and thread scoped instances, dependents before their dependencies.
+     * A failure to close one instance is reported and does not prevent closing the others.
+     */
+    @Override
+    public void close() {
+        List<Provider> ordered = new ArrayList<>(providers.values());
+        Collections.reverse(ordered);
+        for (Provider provider : ordered) {
+            provider.close();
+        }
+    }
+
+    /**
+     * Closes an instance if it implements {@link AutoCloseable}, reporting any failure.
+     *
+     * @param instance the instance to close
+     */
+    static void closeInstance(Object instance) {
+        if (instance instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) instance).close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Builds the provider of the given type, resolving its dependencies first.
+     *
+     * @param type the component class
+     * @param path the components currently being resolved, used to detect cycles
+     * @return the provider of the component
+     */
+    private Provider resolve(Class<?> type, List<Class<?>> path) {
+        Provider provider = providers.get(type);
+        if (provider != null) {
+            return provider;
+        }
+        if (path.contains(type)) {
+            throw new IllegalStateException("Circular dependency: " + path + " -> " + type.getName());
+        }
+        path.add(type);
+
+        Constructor<?> constructor = selectConstructor(type);
+        ScopeType scope = type.isAnnotationPresent(Scope.class)
+                ? type.getAnnotation(Scope.class).value()
+                : ScopeType.SINGLETON;
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Provider[] dependencies = new Provider[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!isComponent(parameterTypes[i])) {
+                throw new IllegalStateException("Cannot inject parameter " + i + " of type " + parameterTypes[i].getName()
+                        + " into " + type.getName() + ": it is neither registered nor annotated as a component");
+            }
+            dependencies[i] = resolve(parameterTypes[i], path);
+            if (dependencies[i].scope.compareTo(scope) > 0) {
+                throw new IllegalStateException(type.getName() + " (" + scope + ") cannot depend on "
+                        + parameterTypes[i].getName() + " (" + dependencies[i].scope + ")");
+            }
+        }
+
+        path.remove(path.size() - 1);
+        provider = new Provider(type, scope, constructor, dependencies);
+        providers.put(type, provider);
+        return provider;
+    }
+
+    /**
+     * Tells whether the container may create instances of the given type.
+     *
+     * @param type the type of a constructor parameter
+     * @return true if the type is registered or annotated as a component
+     */
+    private boolean isComponent(Class<?> type) {
+        return registered.contains(type)
+                || type.isAnnotationPresent(Component.class)
+                || type.isAnnotationPresent(RestController.class)
+                || type.isAnnotationPresent(Scope.class);
+    }
+
+    /**
+     * Selects the constructor used to build a component: the public constructor
+     * with the most parameters, or the only declared constructor.
+     *
+     * @param type the component class
+     * @return the constructor to use
+     */
+    private static Constructor<?> selectConstructor(Class<?> type) {
+        Constructor<?>[] constructors = type.getConstructors();
+        if (constructors.length == 0) {
+            constructors = type.getDeclaredConstructors();
+        }
+        if (constructors.length == 0) {
+            throw new IllegalStateException("No constructor found for " + type.getName());
+        }
+        Constructor<?> selected = constructors[0];
+        for (Constructor<?> constructor : constructors) {
+            if (constructor.getParameterCount() > selected.getParameterCount()) {
+                selected = constructor;
+            }
+        }
+        selected.setAccessible(true);
+        return selected;
+    }
+
+    /**
+     * Creates and caches the instances of a single component according to its scope.
+     */
+    private static class Provider {
+        final Class<?> type;
+        final ScopeType scope;
+        final Constructor<?> constructor;
+        final Provider[] dependencies;
+        final ThreadLocal<Object> threadInstance = new ThreadLocal<>();
+        final Queue<Object> threadInstances = new ConcurrentLinkedQueue<>();
+        volatile Object singleton;
+
+        /**
+         * Constructs a new Provider.
+         *
+         * @param type the component class
+         * @param scope the lifecycle of the component
+         * @param constructor the constructor used to create instances
+         * @param dependencies the providers of the constructor parameters
+         */
+        Provider(Class<?> type, ScopeType scope, Constructor<?> constructor, Provider[] dependencies) {
+            this.type = type;
+            this.scope = scope;
+            this.constructor = constructor;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * Returns the instance of the component that belongs to the given request.
+         *
+         * @param requestScope the scope of the current request, may be null outside a request
+         * @return the component instance
+         * @throws Exception if the component cannot be instantiated
+         */
+        Object get(RequestScope requestScope) throws Exception {
+            switch (scope) {
+                case SINGLETON:
+                    if (singleton == null) {
+                        synchronized (this) {
+                            if (singleton == null) {
+                                singleton = create(requestScope);
+                            }
+                        }
+                    }
+                    return singleton;
+                case THREAD:
+                    Object instance = threadInstance.get();
+                    if (instance == null) {
+                        instance = create(requestScope);
+                        threadInstance.set(instance);
+                        threadInstances.add(instance);
+                    }
+                    return instance;
+                default:
+                    if (requestScope == null) {
+                        throw new IllegalStateException(type.getName() + " is request scoped but no request is active");
+                    }
+                    Object requestInstance = requestScope.get(type);
+                    if (requestInstance == null) {
+                        requestInstance = create(requestScope);
+                        requestScope.put(type, requestInstance);
+                    }
+                    return requestInstance;
+            }
+        }
+
+        /**
+         * Closes the singleton and every thread scoped instance created by this provider.
+         */
+        synchronized void close() {
+            if (singleton != null) {
+                closeInstance(singleton);
+                singleton = null;
+            }
+            Object instance;
+            while ((instance = threadInstances.poll()) != null) {
+                closeInstance(instance);
+            }
+        }
+
+        /**
+         * Creates a new instance of the component, resolving its dependencies.
+         *
+         * @param requestScope the scope of the current request
+         * @return the new instance
+         * @throws Exception if the constructor fails
+         */
+        private Object create(RequestScope requestScope) throws Exception {
+            Object[] args = new Object[dependencies.length];
+            for (int i = 0; i < dependencies.length; i++) {
+                args[i] = dependencies[i].get(requestScope);
+            }
+            try {
+                return constructor.newInstance(args);
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException("Failed to create " + type.getName(), e.getCause());
+            }
+        }
+    }
+}
@@ -2,8 +2,13 @@ package com.mycompany.springeci;
 
 import java.util.concurrent.atomic.AtomicLong;
 
+@RestController
 public class GreetingController {
     private static final String template = "hello, %s";
     private final AtomicLong counter = new AtomicLong();
 
-}
\ No newline at end of file
+    @GetMapping("/greetings")
+    public String greetings(@RequestParam(value = "name", defaultValue = "World") String name) {
+        return counter.incrementAndGet() + ": " + String.format(template, name);
+    }
+}
@@ -0,0 +1,26 @@
+package com.mycompany.springeci;
+
+import com.mycompany.reflexion.Benchmark;
+
+/**
+ * Benchmarks of the HelloService endpoints, run with com.mycompany.reflexion.BenchmarkRunner.
+ * Inputs are read from fields so the JIT cannot constant fold them.
+ */
+public class HelloServiceBenchmark {
+    private String name = "Nicolas";
+
+    @Benchmark
+    public static String hello() {
+        return HelloService.hello();
+    }
+
+    @Benchmark
+    public static String tomorrow() {
+        return HelloService.tomorrow();
+    }
+
+    @Benchmark
+    public String greeting() {
+        return HelloService.greeting(name);
+    }
+}
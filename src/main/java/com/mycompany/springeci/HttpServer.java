@@ -1,7 +1,9 @@
 package com.mycompany.springeci;
 
+import com.mycompany.reflexion.MethodInvoker;
 import java.io.*;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.net.ServerSocket;
 import java.net.Socket;
@@ -12,11 +14,19 @@ import java.util.Map;
  * A simple HTTP server that dynamically invokes methods based on the URL path.
  * It registers services and extracts parameters from the query string.
  * The server also serves static files from the resources directory.
+ * Every request emits Flight Recorder events for its route and for each phase of its handling, with
+ * their duration, CPU time and allocated bytes; they cost next to nothing unless a recording is running
+ * (see {@link ProfilingController}).
+ * Methods annotated with {@link GetMapping} answer GET requests and those annotated with {@link PostMapping}
+ * answer POST requests; other methods get 405. Admin routes are only registered when the springeci.admin
+ * system property is true, and they only answer requests coming from the loopback interface.
  */
 public class HttpServer {
     private static final String STATIC_FILES_DIR = "src/main/resources";
+    private static final String ADMIN_PREFIX = "/admin/";
     private static final Map<String, Method> services = new HashMap<>();
-    private static Object serviceInstance;
+    private static final Map<String, Method> postServices = new HashMap<>();
+    private static final Container container = new Container();
 
     /**
      * Main method to start the HTTP server.
@@ -25,7 +35,14 @@ public class HttpServer {
      * @throws Exception if an error occurs during server initialization or execution
      */
     public static void main(String[] args) throws Exception {
-        initializeServices("com.mycompany.springeci.HelloService");
+        if (Boolean.getBoolean("springeci.admin")) {
+            initializeServices("com.mycompany.springeci.HelloService", "com.mycompany.springeci.GreetingController",
+                    "com.mycompany.springeci.ProfilingController");
+        } else {
+            initializeServices("com.mycompany.springeci.HelloService", "com.mycompany.springeci.GreetingController");
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(container::close));
 
         try (ServerSocket serverSocket = new ServerSocket(8080)) {
             System.out.println("Server is running on port 8080");
@@ -38,23 +55,31 @@ public class HttpServer {
     }
 
     /**
-     * Initializes the services by loading the specified class and its methods.
+     * Initializes the services by loading the specified classes and their methods.
+     * Every controller is registered in the container, which resolves its dependencies.
      *
-     * @param className the fully qualified class name to be loaded
-     * @throws Exception if an error occurs during class loading or method extraction
+     * @param classNames the fully qualified class names to be loaded
+     * @throws Exception if an error occurs during class loading, method extraction or dependency resolution
      */
-    private static void initializeServices(String className) throws Exception {
-        Class<?> c = Class.forName(className);
-        if (c.isAnnotationPresent(RestController.class)) {
-            serviceInstance = c.getDeclaredConstructor().newInstance();
-            Method[] methods = c.getDeclaredMethods();
-            for (Method m : methods) {
-                if (m.isAnnotationPresent(GetMapping.class)) {
-                    String key = m.getAnnotation(GetMapping.class).value();
-                    services.put(key, m);
+    private static void initializeServices(String... classNames) throws Exception {
+        for (String className : classNames) {
+            Class<?> c = Class.forName(className);
+            if (c.isAnnotationPresent(RestController.class)) {
+                container.register(c);
+                Method[] methods = c.getDeclaredMethods();
+                for (Method m : methods) {
+                    if (m.isAnnotationPresent(GetMapping.class)) {
+                        String key = m.getAnnotation(GetMapping.class).value();
+                        services.put(key, m);
+                    }
+                    if (m.isAnnotationPresent(PostMapping.class)) {
+                        String key = m.getAnnotation(PostMapping.class).value();
+                        postServices.put(key, m);
+                    }
                 }
             }
         }
+        container.initialize();
     }
 
     /**
@@ -65,21 +90,50 @@ public class HttpServer {
      */
     private static void handleRequest(Socket clientSocket) throws IOException {
         try (InputStream inputStream = clientSocket.getInputStream();
-             OutputStream outputStream = clientSocket.getOutputStream()) {
+             OutputStream outputStream = clientSocket.getOutputStream();
+             RequestScope requestScope = new RequestScope()) {
+
+            RouteEvent route = new RouteEvent();
+            route.start();
 
-            String request = readRequest(inputStream);
+            RequestPhaseEvent readPhase = new RequestPhaseEvent("read");
+            readPhase.start();
+            byte[] buffer = new byte[1024];
+            int bytesRead = readRequest(inputStream, buffer);
+            String request = new String(buffer, 0, bytesRead);
+            commitPhase(readPhase, null, bytesRead);
             System.out.println("Request: " + request);
 
+            RequestPhaseEvent parsePhase = new RequestPhaseEvent("parse");
+            parsePhase.start();
             RequestDetails requestDetails = parseRequest(request);
+            commitPhase(parsePhase, requestDetails.path, bytesRead);
+            route.path = requestDetails.path;
 
             System.out.println("Request Path: " + requestDetails.path);
             System.out.println("Query Parameters: " + requestDetails.queryParams);
 
-            Method serviceMethod = services.get(requestDetails.path);
-            if (serviceMethod != null) {
-                invokeServiceMethod(outputStream, serviceMethod, requestDetails.queryParams);
+            Map<String, Method> routes = "POST".equals(requestDetails.method) ? postServices : services;
+            Map<String, Method> otherRoutes = routes == services ? postServices : services;
+            Method serviceMethod = routes.get(requestDetails.path);
+            boolean mapped = serviceMethod != null || otherRoutes.containsKey(requestDetails.path);
+            if (mapped && requestDetails.path.startsWith(ADMIN_PREFIX) && !clientSocket.getInetAddress().isLoopbackAddress()) {
+                route.route = requestDetails.path;
+                writeResponse(outputStream, "HTTP/1.1 403 Forbidden", "text/plain", "Forbidden", route);
+            } else if (serviceMethod == null && mapped) {
+                route.route = requestDetails.path;
+                writeResponse(outputStream, "HTTP/1.1 405 Method Not Allowed", "text/plain", "Method Not Allowed", route);
+            } else if (serviceMethod != null) {
+                route.route = requestDetails.path;
+                invokeServiceMethod(outputStream, serviceMethod, requestDetails.queryParams, requestScope, route);
             } else {
-                serveStaticFile(outputStream, requestDetails.path);
+                route.route = "static";
+                serveStaticFile(outputStream, requestDetails.path, route);
+            }
+
+            if (route.stop()) {
+                route.requestBytes = bytesRead;
+                route.commit();
             }
         }
     }
@@ -88,13 +142,12 @@ public class HttpServer {
      * Reads the HTTP request from the input stream.
      *
      * @param inputStream the input stream
-     * @return the HTTP request as a string
+     * @param buffer the buffer that receives the request
+     * @return the number of bytes read
      * @throws IOException if an I/O error occurs while reading the request
      */
-    private static String readRequest(InputStream inputStream) throws IOException {
-        byte[] buffer = new byte[1024];
-        int bytesRead = inputStream.read(buffer);
-        return new String(buffer, 0, bytesRead);
+    private static int readRequest(InputStream inputStream, byte[] buffer) throws IOException {
+        return inputStream.read(buffer);
     }
 
     /**
@@ -117,9 +170,9 @@ public class HttpServer {
                 path = path.substring(0, queryIndex);
             }
             Map<String, String> queryParams = parseQuery(queryString);
-            return new RequestDetails(path, queryParams);
+            return new RequestDetails(requestParts[0], path, queryParams);
         }
-        return new RequestDetails("index.html", new HashMap<>());
+        return new RequestDetails("GET", "index.html", new HashMap<>());
     }
 
     /**
@@ -148,29 +201,47 @@ public class HttpServer {
      * @param outputStream the output stream to write the response
      * @param serviceMethod the service method to invoke
      * @param queryParams the query parameters to pass to the service method
+     * @param requestScope the scope of the current request
+     * @param route the event of the request, completed with the response details
      * @throws IOException if an I/O error occurs while writing the response
      */
-    private static void invokeServiceMethod(OutputStream outputStream, Method serviceMethod, Map<String, String> queryParams) throws IOException {
+    private static void invokeServiceMethod(OutputStream outputStream, Method serviceMethod, Map<String, String> queryParams, RequestScope requestScope, RouteEvent route) throws IOException {
+        RequestPhaseEvent dispatchPhase = new RequestPhaseEvent("dispatch");
+        dispatchPhase.start();
+        String status;
+        String response;
         try {
             Object[] methodParams = extractArguments(serviceMethod, queryParams);
-            String response = (String) serviceMethod.invoke(serviceInstance, methodParams);
-            writeResponse(outputStream, "HTTP/1.1 200 OK", "text/plain", response);
+            Object controller = Modifier.isStatic(serviceMethod.getModifiers())
+                    ? null
+                    : container.getInstance(serviceMethod.getDeclaringClass(), requestScope);
+            response = (String) MethodInvoker.invoke(serviceMethod, controller, methodParams);
+            status = "HTTP/1.1 200 OK";
         } catch (Exception e) {
             e.printStackTrace();
-            writeResponse(outputStream, "HTTP/1.1 500 Internal Server Error", "text/plain", "Internal Server Error");
+            response = "Internal Server Error";
+            status = "HTTP/1.1 500 Internal Server Error";
         }
+        commitPhase(dispatchPhase, route.path, response);
+        writeResponse(outputStream, status, "text/plain", response, route);
     }
 
     /**
      * Serves a static file from the resources directory.
+     * The content returned by {@link HelloService#getStaticFileContent} is already a complete HTTP response,
+     * with its own status line and headers, so it is written as is.
      *
      * @param outputStream the output stream to write the response
      * @param path the path of the static file to serve
+     * @param route the event of the request, completed with the response details
      * @throws IOException if an I/O error occurs while reading or writing the file
      */
-    private static void serveStaticFile(OutputStream outputStream, String path) throws IOException {
+    private static void serveStaticFile(OutputStream outputStream, String path, RouteEvent route) throws IOException {
+        RequestPhaseEvent staticPhase = new RequestPhaseEvent("static");
+        staticPhase.start();
         String response = HelloService.getStaticFileContent(path);
-        writeResponse(outputStream, "HTTP/1.1 200 OK", "text/html", response);
+        commitPhase(staticPhase, path, response);
+        writeRawResponse(outputStream, response, route);
     }
 
     /**
@@ -180,11 +251,62 @@ public class HttpServer {
      * @param status the HTTP status line
      * @param contentType the content type of the response
      * @param content the content of the response
+     * @param route the event of the request, completed with the status and response size
      * @throws IOException if an I/O error occurs while writing the response
      */
-    private static void writeResponse(OutputStream outputStream, String status, String contentType, String content) throws IOException {
+    private static void writeResponse(OutputStream outputStream, String status, String contentType, String content, RouteEvent route) throws IOException {
         String response = status + "\r\nContent-Type: " + contentType + "\r\nContent-Length: " + content.length() + "\r\n\r\n" + content;
-        outputStream.write(response.getBytes());
+        writeRawResponse(outputStream, response, route);
+    }
+
+    /**
+     * Writes a complete HTTP response, status line and headers included, to the output stream.
+     *
+     * @param outputStream the output stream to write the response
+     * @param response the complete HTTP response
+     * @param route the event of the request, completed with the status and response size
+     * @throws IOException if an I/O error occurs while writing the response
+     */
+    private static void writeRawResponse(OutputStream outputStream, String response, RouteEvent route) throws IOException {
+        RequestPhaseEvent writePhase = new RequestPhaseEvent("write");
+        writePhase.start();
+        byte[] bytes = response.getBytes();
+        outputStream.write(bytes);
+        commitPhase(writePhase, route.path, bytes.length);
+        int statusEnd = response.indexOf("\r\n");
+        route.status = statusEnd > 0 ? response.substring(0, statusEnd) : response;
+        route.responseBytes = bytes.length;
+    }
+
+    /**
+     * Ends a phase event and commits it if a recording is interested in it.
+     *
+     * @param phase the phase event, already begun
+     * @param path the path of the request
+     * @param bytes the number of bytes handled by the phase
+     */
+    private static void commitPhase(RequestPhaseEvent phase, String path, long bytes) {
+        if (phase.stop()) {
+            phase.path = path;
+            phase.bytes = bytes;
+            phase.commit();
+        }
+    }
+
+    /**
+     * Ends a phase event and commits it with the encoded size of the given content
+     * if a recording is interested in it. The content is only encoded when the event is committed.
+     *
+     * @param phase the phase event, already begun
+     * @param path the path of the request
+     * @param content the content produced by the phase
+     */
+    private static void commitPhase(RequestPhaseEvent phase, String path, String content) {
+        if (phase.stop()) {
+            phase.path = path;
+            phase.bytes = content.getBytes().length;
+            phase.commit();
+        }
     }
 
     /**
@@ -213,16 +335,19 @@ public class HttpServer {
      * A class to hold the details of an HTTP request.
      */
     private static class RequestDetails {
+        String method;
         String path;
         Map<String, String> queryParams;
 
         /**
          * Constructs a new RequestDetails object.
          *
+         * @param method the HTTP method of the request
          * @param path the path of the request
          * @param queryParams the query parameters of the request
          */
-        RequestDetails(String path, Map<String, String> queryParams) {
+        RequestDetails(String method, String path, Map<String, String> queryParams) {
+            this.method = method;
             this.path = path;
             this.queryParams = queryParams;
         }
@@ -0,0 +1,54 @@
+package com.mycompany.springeci;
+
+import com.mycompany.reflexion.ThreadMetrics;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Timespan;
+
+/**
+ * Base of the {@link HttpServer} Flight Recorder events that also record the CPU time and the bytes
+ * allocated by the handling thread between {@link #start()} and {@link #stop()}.
+ * The thread counters are only read while a recording has the event enabled.
+ */
+abstract class MeasuredEvent extends jdk.jfr.Event {
+    @Label("CPU Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime = -1;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes = -1;
+
+    private transient long cpuStart = -1;
+    private transient long allocatedStart = -1;
+
+    /**
+     * Begins the event, sampling the thread counters if the event is enabled.
+     */
+    void start() {
+        begin();
+        if (isEnabled()) {
+            cpuStart = ThreadMetrics.currentThreadCpuTime();
+            allocatedStart = ThreadMetrics.currentThreadAllocatedBytes();
+        }
+    }
+
+    /**
+     * Ends the event and, if it is going to be committed, fills the CPU time and allocation deltas.
+     *
+     * @return true if the event should be committed
+     */
+    boolean stop() {
+        end();
+        if (!shouldCommit()) {
+            return false;
+        }
+        if (cpuStart >= 0) {
+            cpuTime = ThreadMetrics.currentThreadCpuTime() - cpuStart;
+        }
+        if (allocatedStart >= 0) {
+            allocatedBytes = ThreadMetrics.currentThreadAllocatedBytes() - allocatedStart;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+package com.mycompany.springeci;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Admin endpoint that controls an in-process Flight Recorder recording.
+ * The recording is bounded in age and size so it can stay on in production,
+ * and it is dumped to the recordings directory on demand or when stopped.
+ * Only the most recent dumps are kept on disk.
+ * The {@link HttpServer} only registers this controller when the springeci.admin system property is true.
+ */
+@RestController
+public class ProfilingController {
+    private static final String RECORDINGS_DIR = "target/jfr";
+    private static final Duration MAX_AGE = Duration.ofMinutes(10);
+    private static final long MAX_SIZE = 64L * 1024 * 1024;
+    private static final int MAX_DUMPS = 5;
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private Recording recording;
+
+    /**
+     * Starts, stops or dumps the recording, or reports its state.
+     * The server only lets requests from the loopback interface reach this endpoint.
+     *
+     * @param action one of start, stop, dump or status
+     * @return a description of the outcome
+     */
+    @PostMapping("/admin/jfr")
+    public synchronized String jfr(@RequestParam(value = "action", defaultValue = "status") String action) {
+        try {
+            switch (action) {
+                case "start":
+                    return start();
+                case "stop":
+                    return stop();
+                case "dump":
+                    return dump();
+                case "status":
+                    return recording == null ? "No recording" : "Recording " + recording.getState();
+                default:
+                    return "Unknown action: " + action;
+            }
+        } catch (IOException | ParseException e) {
+            e.printStackTrace();
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Starts a new recording with the default, low overhead, settings.
+     *
+     * @return a description of the outcome
+     * @throws IOException if the settings cannot be read
+     * @throws ParseException if the settings cannot be parsed
+     */
+    private String start() throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return "Recording already running";
+        }
+        recording = new Recording(Configuration.getConfiguration("default"));
+        recording.setName("springeci");
+        recording.setToDisk(true);
+        recording.setMaxAge(MAX_AGE);
+        recording.setMaxSize(MAX_SIZE);
+        recording.enable(RequestPhaseEvent.class);
+        recording.enable(RouteEvent.class);
+        recording.start();
+        return "Recording started";
+    }
+
+    /**
+     * Stops the recording and writes it to disk.
+     *
+     * @return a description of the outcome
+     * @throws IOException if the recording cannot be written
+     */
+    private String stop() throws IOException {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            return "No recording running";
+        }
+        try {
+            recording.stop();
+            return "Recording stopped and dumped to " + write();
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Writes the data recorded so far to disk, leaving the recording running.
+     *
+     * @return a description of the outcome
+     * @throws IOException if the recording cannot be written
+     */
+    private String dump() throws IOException {
+        if (recording == null) {
+            return "No recording";
+        }
+        return "Recording dumped to " + write();
+    }
+
+    /**
+     * Writes the recording to a new timestamped file of the recordings directory,
+     * never overwriting an existing dump, and deletes the oldest dumps beyond {@value #MAX_DUMPS}.
+     *
+     * @return the path of the written file
+     * @throws IOException if the recording cannot be written
+     */
+    private Path write() throws IOException {
+        Path directory = Paths.get(RECORDINGS_DIR);
+        Files.createDirectories(directory);
+        String name = "springeci-" + LocalDateTime.now().format(FILE_TIMESTAMP);
+        Path file = directory.resolve(name + ".jfr");
+        for (int i = 1; Files.exists(file); i++) {
+            file = directory.resolve(name + "_" + i + ".jfr");
+        }
+        recording.dump(file);
+        deleteOldDumps(directory);
+        return file;
+    }
+
+    /**
+     * Deletes the oldest dumps of the recordings directory so at most {@value #MAX_DUMPS} remain.
+     * Dump names start with their timestamp, so sorting them by name sorts them by age.
+     *
+     * @param directory the recordings directory
+     * @throws IOException if the directory cannot be listed or a dump cannot be deleted
+     */
+    private static void deleteOldDumps(Path directory) throws IOException {
+        List<Path> dumps = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "springeci-*.jfr")) {
+            for (Path dump : stream) {
+                dumps.add(dump);
+            }
+        }
+        if (dumps.size() <= MAX_DUMPS) {
+            return;
+        }
+        Collections.sort(dumps);
+        for (Path dump : dumps.subList(0, dumps.size() - MAX_DUMPS)) {
+            Files.deleteIfExists(dump);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mycompany.springeci;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event covering one phase of the request pipeline of the {@link HttpServer}:
+ * read, parse, dispatch, static or write.
+ */
+@Name("com.mycompany.springeci.RequestPhase")
+@Label("Request Phase")
+@Category({"Springeci", "HTTP"})
+@Description("A phase of the handling of an HTTP request")
+@StackTrace(false)
+public class RequestPhaseEvent extends MeasuredEvent {
+    @Label("Phase")
+    String phase;
+
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Constructs a new RequestPhaseEvent.
+     *
+     * @param phase the name of the phase
+     */
+    RequestPhaseEvent(String phase) {
+        this.phase = phase;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mycompany.springeci;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the request-scoped instances created while handling a single request.
+ * A new RequestScope must be opened for every request and closed when the request ends,
+ * which closes the instances that implement {@link AutoCloseable}.
+ */
+public class RequestScope implements AutoCloseable {
+    private final Map<Class<?>, Object> instances = new LinkedHashMap<>();
+
+    /**
+     * Returns the instance of the given type stored in this scope.
+     *
+     * @param type the component type
+     * @return the stored instance, or null if none was created yet
+     */
+    Object get(Class<?> type) {
+        return instances.get(type);
+    }
+
+    /**
+     * Stores an instance of the given type in this scope.
+     *
+     * @param type the component type
+     * @param instance the instance to store
+     */
+    void put(Class<?> type, Object instance) {
+        instances.put(type, instance);
+    }
+
+    /**
+     * Closes the instances of this scope in the reverse order of their creation.
+     * A failure to close one instance is reported and does not prevent closing the others.
+     */
+    @Override
+    public void close() {
+        List<Object> created = new ArrayList<>(instances.values());
+        Collections.reverse(created);
+        instances.clear();
+        for (Object instance : created) {
+            Container.closeInstance(instance);
+        }
+    }
+}
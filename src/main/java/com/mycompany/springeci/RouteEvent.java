@@ -0,0 +1,36 @@
+package com.mycompany.springeci;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event covering the whole handling of a request by the {@link HttpServer}.
+ */
+@Name("com.mycompany.springeci.Route")
+@Label("Route")
+@Category({"Springeci", "HTTP"})
+@Description("An HTTP request handled by a service method or as a static file")
+@StackTrace(false)
+public class RouteEvent extends MeasuredEvent {
+    @Label("Route")
+    @Description("The mapping of the service method, or static for static files")
+    String route;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status")
+    String status;
+
+    @Label("Request Size")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+}
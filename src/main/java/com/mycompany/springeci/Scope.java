@@ -0,0 +1,16 @@
+package com.mycompany.springeci;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the lifecycle of a component managed by the {@link Container}.
+ * Classes without this annotation are treated as singletons.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Scope {
+    ScopeType value() default ScopeType.SINGLETON;
+}
@@ -0,0 +1,14 @@
+package com.mycompany.springeci;
+
+/**
+ * The lifecycles supported by the {@link Container}, from the longest to the shortest lived.
+ * A component may only depend on components that live at least as long as itself.
+ */
+public enum ScopeType {
+    /** One instance shared by the whole server. */
+    SINGLETON,
+    /** One instance per thread that handles requests. */
+    THREAD,
+    /** One instance per handled request. */
+    REQUEST
+}
@@ -4,10 +4,10 @@
 
 package com.mycompany.springeci;
 
-import java.lang.reflect.InvocationTargetException;
+import com.mycompany.reflexion.MethodInvoker;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
@@ -18,11 +18,13 @@ import java.util.Map;
  */
 public class Springeci {
 
-    public static void main(String[] args) throws ClassNotFoundException, IllegalAccessException, InvocationTargetException, MalformedURLException {
-        Class c = Class.forName(args[0]);
-        Map<String,Method> services = new HashMap();
+    public static void main(String[] args) throws Exception {
+        Class<?> c = Class.forName(args[0]);
+        Map<String,Method> services = new HashMap<>();
+        Container container = new Container();
         
         if (c.isAnnotationPresent(RestController.class)){
+            container.register(c);
             Method[] methods = c.getDeclaredMethods();
             for (Method m: methods){
                 if(m.isAnnotationPresent(GetMapping.class)){
@@ -31,6 +33,7 @@ public class Springeci {
                 }
             }
         }
+        container.initialize();
 
         URL serviceurl = new URL("http://localhost:8080/App/greeting?name=Nicolas");
         String path = serviceurl.getPath();
@@ -46,10 +49,14 @@ public class Springeci {
         Method ms = services.get(serviceName);
         if (ms != null) {
             Object[] argsToPass = extractArguments(ms, query); // Extraer parámetros de la consulta
-            System.out.println("Rta: " + ms.invoke(null, argsToPass));
+            try (RequestScope requestScope = new RequestScope()) {
+                Object receiver = Modifier.isStatic(ms.getModifiers()) ? null : container.getInstance(c, requestScope);
+                System.out.println("Rta: " + MethodInvoker.invoke(ms, receiver, argsToPass));
+            }
         } else {
             System.out.println("Not Found: " + serviceName);
         }
+        container.close();
     }
 
     /**